@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.redhat.examples;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.weaviate.client.base.Result;
+import jakarta.annotation.PostConstruct;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/*
+ * AIMD (additive increase, multiplicative decrease) limit on the number of concurrent requests to Weaviate. The limit
+ * grows by one per limit-many successful requests, and is cut by the backoff ratio when a request is slower than the
+ * latency threshold or fails with a 429, 5xx, or connection/timeout error. Decreases are spaced at least one latency
+ * threshold apart so a burst of failures from the same window only backs off once.
+*/
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+  private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+  @Autowired
+  ApplicationConfiguration config;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  private Counter overloadCounter;
+  private double limit;
+  private int inFlight;
+  private long lastDecreaseNanos;
+
+  @PostConstruct
+  void initLimiter() {
+    limit = config.weaviate().limiter().initialLimit();
+    lastDecreaseNanos = System.nanoTime();
+    Gauge.builder("weaviate.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+    Gauge.builder("weaviate.limiter.inflight", this, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+    overloadCounter = Counter.builder("weaviate.limiter.overloads").register(meterRegistry);
+  }
+
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  public <T> Result<T> run(Supplier<Result<T>> request) throws InterruptedException {
+    if (!config.weaviate().limiter().enabled()) {
+      return request.get();
+    }
+    acquire();
+    long start = System.nanoTime();
+    Result<T> result = null;
+    try {
+      result = request.get();
+      return result;
+    } finally {
+      release(System.nanoTime() - start, result == null || isOverloaded(result));
+    }
+  }
+
+  private synchronized void acquire() throws InterruptedException {
+    while (inFlight >= (int) limit) {
+      wait();
+    }
+    ++inFlight;
+  }
+
+  private synchronized void release(long latencyNanos, boolean overloaded) {
+    --inFlight;
+    long thresholdNanos = config.weaviate().limiter().latencyThreshold() * 1_000_000L;
+    if (overloaded || latencyNanos > thresholdNanos) {
+      if (overloaded) {
+        overloadCounter.increment();
+      }
+      long now = System.nanoTime();
+      if (now - lastDecreaseNanos > thresholdNanos) {
+        lastDecreaseNanos = now;
+        double previousLimit = limit;
+        limit = Math.max(config.weaviate().limiter().minLimit(), Math.floor(limit * config.weaviate().limiter().backoffRatio()));
+        log.debug("Decreasing Weaviate limit: previousLimit='{}', limit='{}', latencyMillis='{}', overloaded='{}'", (int) previousLimit, (int) limit, latencyNanos / 1_000_000L, overloaded);
+      }
+    } else if (limit < config.weaviate().limiter().maxLimit()) {
+      limit = Math.min(config.weaviate().limiter().maxLimit(), limit + 1.0 / limit);
+    }
+    notifyAll();
+  }
+
+  private static boolean isOverloaded(Result<?> result) {
+    if (!result.hasErrors()) {
+      return false;
+    }
+    int statusCode = result.getError().getStatusCode();
+    return statusCode == 429 || statusCode >= 500 || statusCode <= 0;
+  }
+}
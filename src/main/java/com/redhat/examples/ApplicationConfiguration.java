@@ -25,7 +25,11 @@ public record ApplicationConfiguration(
   S3 s3,
   Poller poller,
   AlphaVantage alphaVantage,
-  Weaviate weaviate) {
+  Weaviate weaviate,
+  Cluster cluster,
+  OrphanSweep orphanSweep,
+  Snapshot snapshot,
+  Checkpoint checkpoint) {
 
   public record BatchIngest(
     boolean enabled,
@@ -71,7 +75,7 @@ public record ApplicationConfiguration(
     String host,
     int port,
     String path,
-    String function,
+    List<String> functions,
     String apiKey,
     boolean throttleEnabled,
     long throttleRequests,
@@ -89,13 +93,12 @@ public record ApplicationConfiguration(
     String apiKey,
     Map<String, String> headers,
     Schema schema,
-    boolean throttleEnabled,
-    long throttleRequests,
-    long throttlePeriod) {
+    Limiter limiter) {
 
     public record Schema(
       boolean initialize,
       boolean dropIfExists,
+      boolean reconcile,
       String name,
       List<Property> properties,
       String vectorizerModule,
@@ -109,5 +112,58 @@ public record ApplicationConfiguration(
         
       }
     }
+
+    public record Limiter(
+      boolean enabled,
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      long latencyThreshold,
+      double backoffRatio) {
+
+    }
+  }
+
+  public record Checkpoint(
+    boolean enabled,
+    boolean resume,
+    String directory,
+    long period) {
+
+  }
+
+  public record Snapshot(
+    boolean enabled,
+    long loadTtl,
+    int negativeCacheSize,
+    int maxBulkSymbols) {
+
+  }
+
+  public record OrphanSweep(
+    boolean enabled,
+    boolean dryRun,
+    long period,
+    int pageSize,
+    int deleteBatchSize) {
+
+  }
+
+  public record Cluster(
+    boolean enabled,
+    ClusterType type,
+    String namespace,
+    String memberId,
+    String root,
+    String kubernetesNamespace,
+    Map<String, String> labels,
+    long heartbeatPeriod,
+    long memberTimeout,
+    int virtualNodes) {
+
+    enum ClusterType {
+      FILE,
+      KUBERNETES
+    }
   }
 }
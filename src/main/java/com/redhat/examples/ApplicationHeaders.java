@@ -15,6 +15,7 @@ package com.redhat.examples;
 
 public final class ApplicationHeaders {
   
+  public static final String ALPHA_VANTAGE_FUNCTION = "AlphaVantageFunction";
   public static final String DETERMINISTIC_HASH = "DeterministicHash";
   public static final String STOCK_SYMBOL = "StockSymbol";
   public static final String WEAVIATE_ID = "WeaviateID";
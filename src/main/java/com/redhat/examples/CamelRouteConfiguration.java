@@ -16,11 +16,14 @@ package com.redhat.examples;
 import static com.redhat.examples.ApplicationConfiguration.BatchIngest.IngestType.*;
 
 import com.fasterxml.jackson.databind.SerializationFeature;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import org.apache.camel.AggregationStrategy;
 import org.apache.camel.Exchange;
 import org.apache.camel.LoggingLevel;
+import org.apache.camel.builder.AggregationStrategies;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.aws2.s3.AWS2S3Constants;
 import org.apache.camel.model.dataformat.JsonLibrary;
@@ -43,6 +46,21 @@ public class CamelRouteConfiguration extends RouteBuilder {
   
   @Autowired
   WeaviateHelper weaviateHelper;
+  
+  @Autowired
+  SymbolShardManager symbolShardManager;
+  
+  @Autowired
+  CompanySymbols companySymbols;
+  
+  @Autowired
+  CompanyOverviewSnapshot companyOverviewSnapshot;
+  
+  @Autowired
+  IngestCheckpointStore ingestCheckpointStore;
+
+  @Autowired
+  CompanyOverviewAggregationStrategy companyOverviewAggregationStrategy;
 
   @Bean
   IdempotentRepository batchIngestHashIdempotentRepository() {
@@ -54,14 +72,27 @@ public class CamelRouteConfiguration extends RouteBuilder {
     return new HeaderEnrichmentStrategy(ApplicationHeaders.DETERMINISTIC_HASH);
   }
   
+  @Bean
+  AggregationStrategy companyOverviewBodyEnrichmentStrategy() {
+    return AggregationStrategies.flexible(Map.class).storeNulls();
+  }
+  
   @Override
   public void configure() {
     
+    /*
+     * Upserts to Weaviate during batch ingest run on this pool. The adaptive limiter decides how many of them actually
+     * reach Weaviate at once.
+    */
+    ExecutorService weaviateUpsertExecutorService = getContext().getExecutorServiceManager().newFixedThreadPool(this, "WeaviateUpsert", (config.weaviate().limiter().enabled()) ? config.weaviate().limiter().maxLimit() : 1);
+    
     /*
      * Determine which routes should start.
     */
     from("timer:kickstartmyroutes?delay=1000&repeatCount=1")
       .choice()
+        .when().constant(config.cluster().enabled())
+          .to("direct:kickstartmycluster")
         .when().constant(config.batchIngest().enabled())
           .to("direct:kickstartmyingest")
         .otherwise()
@@ -69,6 +100,39 @@ public class CamelRouteConfiguration extends RouteBuilder {
       .end()
     ;
     
+    /*
+     * Join the cluster and start polling the assigned symbols. The batch ingest is started once this member is elected
+     * leader.
+    */
+    from("direct:kickstartmycluster")
+      .bean(symbolShardManager, "join")
+      .to("controlbus:route?routeId=clusterHeartbeat&action=start&async=true")
+      .to("direct:kickstartmypoller")
+    ;
+    
+    /*
+     * Refresh the cluster members so that the poller symbols can be rebalanced on join/leave.
+    */
+    fromF("timer:clusterHeartbeat?period=%s", config.cluster().heartbeatPeriod()).routeId("clusterHeartbeat").autoStartup(false)
+      .bean(symbolShardManager, "refreshMembers")
+    ;
+    
+    /*
+     * This member was elected leader. Only the leader runs the batch ingest (and the orphan sweep).
+    */
+    from("direct:kickstartmyleader")
+      .to("direct:kickstartmyingest")
+    ;
+    
+    /*
+     * This member lost leadership. Stop any batch ingest, the poller keeps running for the assigned symbols.
+    */
+    from("direct:kickstartmyfollower")
+      .to("controlbus:route?routeId=embeddedIngest&action=stop&async=true")
+      .to("controlbus:route?routeId=fileIngest&action=stop&async=true")
+      .to("controlbus:route?routeId=s3Ingest&action=stop&async=true")
+    ;
+    
     /*
      * Determine which batch ingest route should start.
     */
@@ -90,12 +154,22 @@ public class CamelRouteConfiguration extends RouteBuilder {
      * Start the poller route if polling is enabled.
     */
     from("direct:kickstartmypoller")
+      .to("direct:kickstartmysweeper")
       .filter().constant(!config.poller().enabled())
         .stop()
       .end()
       .to("controlbus:route?routeId=poller&action=start&async=true")
     ;
     
+    /*
+     * Start the orphan sweep route if sweeping is enabled.
+    */
+    from("direct:kickstartmysweeper")
+      .filter().constant(config.orphanSweep().enabled())
+        .to("controlbus:route?routeId=orphanSweep&action=start&async=true")
+      .end()
+    ;
+    
     /*
      * Ensures a single worker at a time.
     */
@@ -114,7 +188,9 @@ public class CamelRouteConfiguration extends RouteBuilder {
       .log(LoggingLevel.INFO, log, "Loading embedded: key='classpath:data/company-overview.json'")
       .to("language:constant:resource:classpath:data/company-overview.json")
       .unmarshal().json(JsonLibrary.Jackson, List.class)
-      .split().body()
+      .transform().method(weaviateHelper, "distinctBySymbol(${body})")
+      .bean(companySymbols, "recordBatchSymbols")
+      .split().body().executorService(weaviateUpsertExecutorService)
         .setHeader(ApplicationHeaders.STOCK_SYMBOL).simple("${body['Symbol']}")
         .to("direct:upsertCompanyOverviewToWeaviate")
       .end()
@@ -140,13 +216,18 @@ public class CamelRouteConfiguration extends RouteBuilder {
       .log(LoggingLevel.DEBUG, log, String.format("Checking file should process: name='${header.%s}', deterministicHash='${header.%s}'", Exchange.FILE_NAME, ApplicationHeaders.DETERMINISTIC_HASH))
       .idempotentConsumer().header(ApplicationHeaders.DETERMINISTIC_HASH).idempotentRepository("batchIngestHashIdempotentRepository")
         .log(LoggingLevel.INFO, log, String.format("Processing file: name='${header.%s}', deterministicHash='${header.%s}'", Exchange.FILE_NAME, ApplicationHeaders.DETERMINISTIC_HASH))
-        .split().body()
+        .transform().method(weaviateHelper, "distinctBySymbol(${body})")
+        .bean(companySymbols, "recordBatchSymbols")
+        .bean(ingestCheckpointStore, String.format("begin(${header.%s}, ${body.size()})", ApplicationHeaders.DETERMINISTIC_HASH))
+        .split().body().executorService(weaviateUpsertExecutorService)
           .setHeader(ApplicationHeaders.STOCK_SYMBOL).simple("${body['Symbol']}")
           .multicast()
-            .to("direct:upsertCompanyOverviewToWeaviate")
+            .to("direct:ingestCompanyOverview")
             .to("direct:updateBatchIngestFile")
           .end()
         .end()
+        .bean(ingestCheckpointStore, String.format("complete(${header.%s})", ApplicationHeaders.DETERMINISTIC_HASH))
+        .to("direct:writeBatchIngestFile")
       .end()
       .to("direct:kickstartmypoller")
     ;
@@ -155,16 +236,13 @@ public class CamelRouteConfiguration extends RouteBuilder {
      * Update the local JSON file if modifications have been made.
     */
     from("direct:updateFileBatchIngestFile")
-      .aggregate().constant(true).aggregationStrategy("companyOverviewAggregationStrategy").eagerCheckCompletion().completionPredicate(header(Exchange.SPLIT_COMPLETE))
-        .setBody().simple("${body.values()}")
-        .setHeader(Exchange.FILE_NAME).constant(config.file().fileName())
-        .enrich().constant("direct:calculateDeterministicHash").aggregationStrategy("deterministicHashHeaderEnrichmentStrategy").end()
-        .log(LoggingLevel.DEBUG, log, String.format("Checking file should update: name='${header.%s}', deterministicHash='${header.%s}'", Exchange.FILE_NAME, ApplicationHeaders.DETERMINISTIC_HASH))
-        .idempotentConsumer().header(ApplicationHeaders.DETERMINISTIC_HASH).idempotentRepository("batchIngestHashIdempotentRepository")
-          .log(LoggingLevel.INFO, log, String.format("Updating file: name='${header.%s}', deterministicHash='${header.%s}'", Exchange.FILE_NAME, ApplicationHeaders.DETERMINISTIC_HASH))
-          .marshal().json(JsonLibrary.Jackson, true)
-          .toF("file:%s", config.file().directory())
-        .end()
+      .setHeader(Exchange.FILE_NAME).constant(config.file().fileName())
+      .enrich().constant("direct:calculateDeterministicHash").aggregationStrategy("deterministicHashHeaderEnrichmentStrategy").end()
+      .log(LoggingLevel.DEBUG, log, String.format("Checking file should update: name='${header.%s}', deterministicHash='${header.%s}'", Exchange.FILE_NAME, ApplicationHeaders.DETERMINISTIC_HASH))
+      .idempotentConsumer().header(ApplicationHeaders.DETERMINISTIC_HASH).idempotentRepository("batchIngestHashIdempotentRepository")
+        .log(LoggingLevel.INFO, log, String.format("Updating file: name='${header.%s}', deterministicHash='${header.%s}'", Exchange.FILE_NAME, ApplicationHeaders.DETERMINISTIC_HASH))
+        .marshal().json(JsonLibrary.Jackson, true)
+        .toF("file:%s", config.file().directory())
       .end()
     ;
     
@@ -192,13 +270,18 @@ public class CamelRouteConfiguration extends RouteBuilder {
         .log(LoggingLevel.DEBUG, log, String.format("Checking S3 should process: key='${header.%s}', deterministicHash='${header.%s}'", AWS2S3Constants.KEY, ApplicationHeaders.DETERMINISTIC_HASH))
         .idempotentConsumer().header(ApplicationHeaders.DETERMINISTIC_HASH).idempotentRepository("batchIngestHashIdempotentRepository")
           .log(LoggingLevel.INFO, log, String.format("Processing S3: key='${header.%s}', deterministicHash='${header.%s}'", AWS2S3Constants.KEY, ApplicationHeaders.DETERMINISTIC_HASH))
-          .split().body()
+          .transform().method(weaviateHelper, "distinctBySymbol(${body})")
+          .bean(companySymbols, "recordBatchSymbols")
+          .bean(ingestCheckpointStore, String.format("begin(${header.%s}, ${body.size()})", ApplicationHeaders.DETERMINISTIC_HASH))
+          .split().body().executorService(weaviateUpsertExecutorService)
             .setHeader(ApplicationHeaders.STOCK_SYMBOL).simple("${body['Symbol']}")
             .multicast()
-              .to("direct:upsertCompanyOverviewToWeaviate")
+              .to("direct:ingestCompanyOverview")
               .to("direct:updateBatchIngestFile")
             .end()
           .end()
+          .bean(ingestCheckpointStore, String.format("complete(${header.%s})", ApplicationHeaders.DETERMINISTIC_HASH))
+          .to("direct:writeBatchIngestFile")
         .end()
         .to("direct:kickstartmypoller")
       .end()
@@ -208,37 +291,73 @@ public class CamelRouteConfiguration extends RouteBuilder {
      * Update the AWS S3 JSON file if modifications have been made.
     */
     from("direct:updateS3BatchIngestFile")
-      .aggregate().constant(true).aggregationStrategy("companyOverviewAggregationStrategy").eagerCheckCompletion().completionPredicate(header(Exchange.SPLIT_COMPLETE))
-        .setBody().simple("${body.values()}")
-        .setHeader(AWS2S3Constants.KEY).constant(config.s3().fileName())
-        .enrich().constant("direct:calculateDeterministicHash").aggregationStrategy("deterministicHashHeaderEnrichmentStrategy").end()
-        .log(LoggingLevel.DEBUG, log, String.format("Checking S3 should update: key='${header.%s}', deterministicHash='${header.%s}'", AWS2S3Constants.KEY, ApplicationHeaders.DETERMINISTIC_HASH))
-        .idempotentConsumer().header(ApplicationHeaders.DETERMINISTIC_HASH).idempotentRepository("batchIngestHashIdempotentRepository")
-          .log(LoggingLevel.INFO, log, String.format("Updating S3: key='${header.%s}', deterministicHash='${header.%s}'", AWS2S3Constants.KEY, ApplicationHeaders.DETERMINISTIC_HASH))
-          .marshal().json(JsonLibrary.Jackson, true)
-          .toF("aws2-s3:%s?region=%s&fileName=RAW(%s)&accessKey=RAW(%s)&secretKey=RAW(%s)",
-            config.s3().bucketName(), 
-            config.s3().regionName(),
-            config.s3().fileName(),
-            (config.s3().accessKey() == null || config.s3().accessKey().isBlank()) ? "<access_key>" : config.s3().accessKey(),
-            (config.s3().secretKey() == null || config.s3().secretKey().isBlank()) ? "<scret_key>" : config.s3().secretKey()
-          )
-          .idempotentConsumer().header(AWS2S3Constants.E_TAG).idempotentRepository("batchIngestHashIdempotentRepository")
-            .log(LoggingLevel.INFO, log, String.format("Adding updated S3 hash: key='${header.%s}', s3hash='${header.%s}'", AWS2S3Constants.KEY, AWS2S3Constants.E_TAG))
-          .end()
+      .setHeader(AWS2S3Constants.KEY).constant(config.s3().fileName())
+      .enrich().constant("direct:calculateDeterministicHash").aggregationStrategy("deterministicHashHeaderEnrichmentStrategy").end()
+      .log(LoggingLevel.DEBUG, log, String.format("Checking S3 should update: key='${header.%s}', deterministicHash='${header.%s}'", AWS2S3Constants.KEY, ApplicationHeaders.DETERMINISTIC_HASH))
+      .idempotentConsumer().header(ApplicationHeaders.DETERMINISTIC_HASH).idempotentRepository("batchIngestHashIdempotentRepository")
+        .log(LoggingLevel.INFO, log, String.format("Updating S3: key='${header.%s}', deterministicHash='${header.%s}'", AWS2S3Constants.KEY, ApplicationHeaders.DETERMINISTIC_HASH))
+        .marshal().json(JsonLibrary.Jackson, true)
+        .toF("aws2-s3:%s?region=%s&fileName=RAW(%s)&accessKey=RAW(%s)&secretKey=RAW(%s)",
+          config.s3().bucketName(), 
+          config.s3().regionName(),
+          config.s3().fileName(),
+          (config.s3().accessKey() == null || config.s3().accessKey().isBlank()) ? "<access_key>" : config.s3().accessKey(),
+          (config.s3().secretKey() == null || config.s3().secretKey().isBlank()) ? "<scret_key>" : config.s3().secretKey()
+        )
+        .idempotentConsumer().header(AWS2S3Constants.E_TAG).idempotentRepository("batchIngestHashIdempotentRepository")
+          .log(LoggingLevel.INFO, log, String.format("Adding updated S3 hash: key='${header.%s}', s3hash='${header.%s}'", AWS2S3Constants.KEY, AWS2S3Constants.E_TAG))
         .end()
       .end()
     ;
     
     /*
-     * Update the batch ingest JSON file.
+     * Upsert a batch ingest record unless it's below the checkpoint being resumed from, then checkpoint it. Skipped records
+     * still go into the snapshot.
     */
-    from("direct:updateBatchIngestFile")
+    from("direct:ingestCompanyOverview")
       .choice()
-        .when().constant(config.batchIngest().enabled() && config.batchIngest().type() == FILE && config.file().update())
-          .to("direct:updateFileBatchIngestFile")
-        .when().constant(config.batchIngest().enabled() && config.batchIngest().type() == S3 && config.s3().update())
-          .to("direct:updateS3BatchIngestFile")
+        .when().method(ingestCheckpointStore, String.format("isCommitted(${header.%s}, ${exchangeProperty.%s})", ApplicationHeaders.DETERMINISTIC_HASH, Exchange.SPLIT_INDEX))
+          .log(LoggingLevel.DEBUG, log, String.format("Skipping checkpointed record: symbol='${header.%s}', index='${exchangeProperty.%s}'", ApplicationHeaders.STOCK_SYMBOL, Exchange.SPLIT_INDEX))
+          .transform().method(weaviateHelper, "convertToWeaviateProperties(${body})")
+          .bean(companyOverviewSnapshot, String.format("update(${header.%s}, ${body})", ApplicationHeaders.STOCK_SYMBOL))
+        .otherwise()
+          .to("direct:upsertCompanyOverviewToWeaviate")
+          .bean(ingestCheckpointStore, String.format("commit(${header.%s}, ${exchangeProperty.%s}, ${header.%s})", ApplicationHeaders.DETERMINISTIC_HASH, Exchange.SPLIT_INDEX, ApplicationHeaders.STOCK_SYMBOL))
+      .end()
+    ;
+    
+    /*
+     * Record a company overview for the batch ingest JSON file. Records arrive from parallel splits, so they're collected
+     * here and the file is written once by direct:writeBatchIngestFile after the split has finished. In clustered mode the
+     * leader rebuilds the file from Weaviate instead, so nothing is collected.
+    */
+    from("direct:updateBatchIngestFile")
+      .filter().constant(!config.cluster().enabled() && config.batchIngest().enabled() && ((config.batchIngest().type() == FILE && config.file().update()) || (config.batchIngest().type() == S3 && config.s3().update())))
+        .bean(companyOverviewAggregationStrategy, String.format("put(${header.%s}, ${body})", ApplicationHeaders.STOCK_SYMBOL))
+      .end()
+    ;
+    
+    /*
+     * Write the company overviews back to the batch ingest JSON file. Only the leader writes. In clustered mode the other
+     * members upsert their own shards, so the leader writes every object in Weaviate (including the shards polled by the
+     * other members, as of their last completed poll).
+    */
+    from("direct:writeBatchIngestFile")
+      .filter().constant(config.batchIngest().enabled() && ((config.batchIngest().type() == FILE && config.file().update()) || (config.batchIngest().type() == S3 && config.s3().update())))
+        .filter().method(symbolShardManager, "isLeader")
+          .choice()
+            .when().constant(config.cluster().enabled())
+              .process("loadWeaviateObjectsProcessor")
+            .otherwise()
+              .setBody().method(companyOverviewAggregationStrategy, "getCompanyOverviews")
+          .end()
+          .choice()
+            .when().constant(config.batchIngest().type() == FILE)
+              .to("direct:updateFileBatchIngestFile")
+            .when().constant(config.batchIngest().type() == S3)
+              .to("direct:updateS3BatchIngestFile")
+          .end()
+        .end()
       .end()
     ;
     
@@ -258,7 +377,7 @@ public class CamelRouteConfiguration extends RouteBuilder {
     ;
     
     /*
-     * Load the list of stock symbols and check each for updated company information.
+     * Load the list of stock symbols assigned to this member and check each for updated company information.
     */
     fromF("timer:poller?delay=1000&period=%s", config.poller().period()).routeId("poller").autoStartup(false)
       .to("seda:poller")
@@ -268,10 +387,10 @@ public class CamelRouteConfiguration extends RouteBuilder {
       .to("seda:singletonWorker")
     ;
     from("direct:poller")
-      .split().constant(config.poller().symbols())
+      .split().method(symbolShardManager, "getAssignedSymbols")
         .log(LoggingLevel.INFO, log, "Fetching company overview: symbol='${body}'")
         .setHeader(ApplicationHeaders.STOCK_SYMBOL).body()
-        .to("direct:fetchCompanyOverview")
+        .enrich().constant("direct:fetchCompanyOverview").aggregationStrategy("companyOverviewBodyEnrichmentStrategy").end()
         .filter(body().isNotNull())
           .multicast()
             .to("direct:upsertCompanyOverviewToWeaviate")
@@ -279,48 +398,77 @@ public class CamelRouteConfiguration extends RouteBuilder {
           .end()
         .end()
       .end()
+      .to("direct:writeBatchIngestFile")
     ;
     
     /*
-     * Invoke the Alpha Vantage API (throttled).
+     * Fetch all of the configured Alpha Vantage functions concurrently and merge them into a single company overview.
+     * Fields of functions other than OVERVIEW are prefixed with the function name so they don't collide. The body is set
+     * to null if any of the functions couldn't be fetched.
     */
     from("direct:fetchCompanyOverview")
-      .throttle(config.alphaVantage().throttleRequests()).timePeriodMillis(config.alphaVantage().throttleRequests()).disabled(!config.alphaVantage().throttleEnabled())
+      .split().constant(config.alphaVantage().functions()).parallelProcessing().aggregationStrategy(AggregationStrategies.flexible(Map.class).storeNulls().accumulateInCollection(ArrayList.class))
+        .setHeader(ApplicationHeaders.ALPHA_VANTAGE_FUNCTION).simple("${body.toUpperCase()}")
+        .to("direct:fetchAlphaVantageFunction")
+        .filter(body().isNotNull())
+          .transform().method(weaviateHelper, String.format("toFunctionProperties(${header.%s}, ${body})", ApplicationHeaders.ALPHA_VANTAGE_FUNCTION))
+        .end()
+      .end()
+      .transform().method(weaviateHelper, "mergeProperties(${body})")
+    ;
+    
+    /*
+     * Invoke the Alpha Vantage API (throttled).
+    */
+    from("direct:fetchAlphaVantageFunction")
+      .throttle(config.alphaVantage().throttleRequests()).timePeriodMillis(config.alphaVantage().throttlePeriod()).disabled(!config.alphaVantage().throttleEnabled())
       .setHeader(Exchange.HTTP_QUERY)
         .simple(
           String.format(
-            "function=%s&symbol=${header.%s}&apikey=%s", 
-            config.alphaVantage().function().toUpperCase(), 
+            "function=${header.%s}&symbol=${header.%s}&apikey=%s", 
+            ApplicationHeaders.ALPHA_VANTAGE_FUNCTION, 
             ApplicationHeaders.STOCK_SYMBOL, 
             (config.alphaVantage().apiKey() == null || config.alphaVantage().apiKey().isBlank()) ? "demo" : config.alphaVantage().apiKey()
           )
         )
       .toF("%s://%s:%s/%s?followRedirects=true", config.alphaVantage().scheme(), config.alphaVantage().host(), config.alphaVantage().port(), config.alphaVantage().path())
-      .log(LoggingLevel.DEBUG, log, String.format("Alpha Vantage response: symbol='${header.%s}', response='${body}'", ApplicationHeaders.STOCK_SYMBOL))
+      .log(LoggingLevel.DEBUG, log, String.format("Alpha Vantage response: symbol='${header.%s}', function='${header.%s}', response='${body}'", ApplicationHeaders.STOCK_SYMBOL, ApplicationHeaders.ALPHA_VANTAGE_FUNCTION))
       .unmarshal().json(JsonLibrary.Jackson, Map.class)
-      .filter().simple("${body} == ${null} || ${body.isEmpty()}")
-        .log(LoggingLevel.WARN, log, String.format("Unable to fetch company overview: symbol='${header.%s}', message='Empty/null response returned from Alpha Advantage API.'", ApplicationHeaders.STOCK_SYMBOL))
-        .stop()
-      .end()
-      .filter().simple("${body.containsKey('Error Message')}")
-        .log(LoggingLevel.WARN, log, String.format("Unable to fetch company overview: symbol='${header.%s}', message='${body['Error Message']}'", ApplicationHeaders.STOCK_SYMBOL))
-        .stop()
+      .choice()
+        .when().simple("${body} == ${null} || ${body.isEmpty()}")
+          .log(LoggingLevel.WARN, log, String.format("Unable to fetch company overview: symbol='${header.%s}', function='${header.%s}', message='Empty/null response returned from Alpha Advantage API.'", ApplicationHeaders.STOCK_SYMBOL, ApplicationHeaders.ALPHA_VANTAGE_FUNCTION))
+          .setBody().constant(null)
+        .when().simple("${body.containsKey('Error Message')}")
+          .log(LoggingLevel.WARN, log, String.format("Unable to fetch company overview: symbol='${header.%s}', function='${header.%s}', message='${body['Error Message']}'", ApplicationHeaders.STOCK_SYMBOL, ApplicationHeaders.ALPHA_VANTAGE_FUNCTION))
+          .setBody().constant(null)
+        .when().simple("${body.containsKey('Information')}")
+          .log(LoggingLevel.WARN, log, String.format("Unable to fetch company overview: symbol='${header.%s}', function='${header.%s}', message='${body['Information']}'", ApplicationHeaders.STOCK_SYMBOL, ApplicationHeaders.ALPHA_VANTAGE_FUNCTION))
+          .setBody().constant(null)
       .end()
-      .filter().simple("${body.containsKey('Information')}")
-        .log(LoggingLevel.WARN, log, String.format("Unable to fetch company overview: symbol='${header.%s}', message='${body['Information']}'", ApplicationHeaders.STOCK_SYMBOL))
-        .stop()
+    ;
+    
+    /*
+     * Delete objects from Weaviate that are no longer in the current symbol set. Only the leader sweeps.
+    */
+    fromF("timer:orphanSweep?delay=%s&period=%s", config.orphanSweep().period(), config.orphanSweep().period()).routeId("orphanSweep").autoStartup(false)
+      .setHeader(ApplicationHeaders.SINGLETON_WORKER_URI).constant("direct:orphanSweep")
+      .to("seda:singletonWorker")
+    ;
+    from("direct:orphanSweep")
+      .filter().method(symbolShardManager, "isLeader")
+        .process("sweepWeaviateOrphansProcessor")
       .end()
     ;
     
     /*
-     * Insert or update a company overview into Weaviate.
+     * Insert or update a company overview into Weaviate (adaptively limited), then update the in-memory snapshot.
     */
     from("direct:upsertCompanyOverviewToWeaviate")
-      .throttle(config.weaviate().throttleRequests()).timePeriodMillis(config.weaviate().throttleRequests()).disabled(!config.weaviate().throttleEnabled())
       .setHeader(ApplicationHeaders.WEAVIATE_ID).method(weaviateHelper, String.format("calculateDeterministicUUID(${headers.%s})", ApplicationHeaders.STOCK_SYMBOL))
       .transform().method(weaviateHelper, "convertToWeaviateProperties(${body})")
       .log(LoggingLevel.INFO, log, String.format("Upserting object to weaviate: symbol='${header.%s}', id='${headers.%s}'", ApplicationHeaders.STOCK_SYMBOL, ApplicationHeaders.WEAVIATE_ID))
       .process("upsertWeaviateObjectProcessor")
+      .bean(companyOverviewSnapshot, String.format("update(${header.%s}, ${body})", ApplicationHeaders.STOCK_SYMBOL))
     ;
   }
 }
@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.redhat.examples;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.cluster.CamelClusterService;
+import org.apache.camel.component.file.cluster.FileLockClusterService;
+import org.apache.camel.component.kubernetes.cluster.KubernetesClusterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ClusterServiceConfiguration {
+
+  @Autowired
+  ApplicationConfiguration config;
+
+  @Autowired
+  CamelContext camelContext;
+
+  @Bean
+  @ConditionalOnProperty(prefix = "application.cluster", name = "enabled", havingValue = "true")
+  CamelClusterService camelClusterService() throws Exception {
+    CamelClusterService clusterService = switch (config.cluster().type()) {
+      case FILE -> {
+        FileLockClusterService fileLockClusterService = new FileLockClusterService();
+        fileLockClusterService.setRoot(config.cluster().root());
+        yield fileLockClusterService;
+      }
+      case KUBERNETES -> {
+        KubernetesClusterService kubernetesClusterService = new KubernetesClusterService();
+        if (config.cluster().kubernetesNamespace() != null && !config.cluster().kubernetesNamespace().isBlank()) {
+          kubernetesClusterService.setKubernetesNamespace(config.cluster().kubernetesNamespace());
+        }
+        kubernetesClusterService.setPodName(config.cluster().memberId());
+        if (config.cluster().labels() != null && !config.cluster().labels().isEmpty()) {
+          kubernetesClusterService.setClusterLabels(config.cluster().labels());
+        }
+        yield kubernetesClusterService;
+      }
+    };
+    clusterService.setId(config.cluster().memberId());
+    camelContext.addService(clusterService, true, true);
+    return clusterService;
+  }
+}
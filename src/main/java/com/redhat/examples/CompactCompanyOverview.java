@@ -0,0 +1,209 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.redhat.examples;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/*
+ * Memory efficient copy of a company overview JSON object. Keys are stored as ids into a dictionary shared by all
+ * overviews, values of low-cardinality fields are interned, and numbers (including numeric strings that round trip
+ * exactly) are stored as primitives. Serializes back to the same JSON as the original map.
+*/
+@JsonSerialize(using = CompactCompanyOverview.Serializer.class)
+public final class CompactCompanyOverview {
+
+  private static final Set<String> LOW_CARDINALITY_KEYS = Set.of("AssetType", "Country", "Currency", "DividendDate", "ExDividendDate", "Exchange", "FiscalYearEnd", "Industry", "LatestQuarter", "Sector");
+  private static final Set<String> LOW_CARDINALITY_VALUES = Set.of("None", "-", "0", "0.0");
+
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte LONG_STRING = 2;
+  private static final byte DOUBLE_STRING = 3;
+  private static final byte LONG = 4;
+  private static final byte DOUBLE = 5;
+  private static final byte OTHER = 6;
+
+  private static final Map<String, Character> keyIds = new ConcurrentHashMap<>();
+  private static volatile String[] keyNames = new String[0];
+  private static final Map<String, String> internedValues = new ConcurrentHashMap<>();
+
+  private final char[] keys;
+  private final byte[] types;
+  private final long[] primitives;
+  private final Object[] references;
+
+  private CompactCompanyOverview(char[] keys, byte[] types, long[] primitives, Object[] references) {
+    this.keys = keys;
+    this.types = types;
+    this.primitives = primitives;
+    this.references = references;
+  }
+
+  public static CompactCompanyOverview of(Map<String, Object> from) {
+    int size = from.size();
+    char[] keys = new char[size];
+    byte[] types = new byte[size];
+    long[] primitives = new long[size];
+    Object[] references = new Object[size];
+    int slot = 0;
+    int primitiveCount = 0;
+    int referenceCount = 0;
+    for (Map.Entry<String, Object> entry : from.entrySet()) {
+      keys[slot] = keyId(entry.getKey());
+      Object value = entry.getValue();
+      if (value == null) {
+        types[slot] = NULL;
+      } else if (value instanceof String s) {
+        if (isLong(s)) {
+          types[slot] = LONG_STRING;
+          primitives[primitiveCount++] = Long.parseLong(s);
+        } else if (isDouble(s)) {
+          types[slot] = DOUBLE_STRING;
+          primitives[primitiveCount++] = Double.doubleToRawLongBits(Double.parseDouble(s));
+        } else {
+          types[slot] = STRING;
+          references[referenceCount++] = (LOW_CARDINALITY_KEYS.contains(entry.getKey()) || LOW_CARDINALITY_VALUES.contains(s)) ? intern(s) : s;
+        }
+      } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+        types[slot] = LONG;
+        primitives[primitiveCount++] = ((Number) value).longValue();
+      } else if (value instanceof Double || value instanceof Float) {
+        types[slot] = DOUBLE;
+        primitives[primitiveCount++] = Double.doubleToRawLongBits(((Number) value).doubleValue());
+      } else {
+        types[slot] = OTHER;
+        references[referenceCount++] = value;
+      }
+      ++slot;
+    }
+    return new CompactCompanyOverview(keys, types, Arrays.copyOf(primitives, primitiveCount), Arrays.copyOf(references, referenceCount));
+  }
+
+  /*
+   * Index into the primitives or references array for each slot.
+  */
+  private int[] dataIndexes() {
+    int[] dataIndexes = new int[keys.length];
+    int primitiveCount = 0;
+    int referenceCount = 0;
+    for (int slot = 0; slot < keys.length; ++slot) {
+      dataIndexes[slot] = switch (types[slot]) {
+        case STRING, OTHER -> referenceCount++;
+        case LONG_STRING, DOUBLE_STRING, LONG, DOUBLE -> primitiveCount++;
+        default -> -1;
+      };
+    }
+    return dataIndexes;
+  }
+
+  private static char keyId(String key) {
+    Character id = keyIds.get(key);
+    if (id != null) {
+      return id;
+    }
+    synchronized (keyIds) {
+      id = keyIds.get(key);
+      if (id == null) {
+        String[] names = keyNames;
+        if (names.length > Character.MAX_VALUE) {
+          throw new IllegalStateException(String.format("Too many distinct keys: count='%d'", names.length));
+        }
+        id = (char) names.length;
+        String[] newNames = Arrays.copyOf(names, names.length + 1);
+        newNames[id] = key;
+        keyNames = newNames;
+        keyIds.put(key, id);
+      }
+      return id;
+    }
+  }
+
+  private static String intern(String value) {
+    String interned = internedValues.putIfAbsent(value, value);
+    return (interned != null) ? interned : value;
+  }
+
+  private static boolean isLong(String s) {
+    if (!looksNumeric(s) || s.length() > 19) {
+      return false;
+    }
+    try {
+      return Long.toString(Long.parseLong(s)).equals(s);
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private static boolean isDouble(String s) {
+    if (!looksNumeric(s)) {
+      return false;
+    }
+    try {
+      return Double.toString(Double.parseDouble(s)).equals(s);
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private static boolean looksNumeric(String s) {
+    if (s.isEmpty()) {
+      return false;
+    }
+    char first = s.charAt(0);
+    return Character.isDigit(first) || (first == '-' && s.length() > 1 && Character.isDigit(s.charAt(1)));
+  }
+
+  public static class Serializer extends StdSerializer<CompactCompanyOverview> {
+
+    public Serializer() {
+      super(CompactCompanyOverview.class);
+    }
+
+    @Override
+    public void serialize(CompactCompanyOverview value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      String[] names = keyNames;
+      int[] dataIndexes = value.dataIndexes();
+      IntStream slots = IntStream.range(0, value.keys.length);
+      if (provider.isEnabled(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)) {
+        slots = slots.boxed().sorted(Comparator.comparing((Integer t) -> names[value.keys[t]])).mapToInt(Integer::intValue);
+      }
+      gen.writeStartObject(value);
+      for (int slot : slots.toArray()) {
+        gen.writeFieldName(names[value.keys[slot]]);
+        int dataIndex = dataIndexes[slot];
+        switch (value.types[slot]) {
+          case STRING -> gen.writeString((String) value.references[dataIndex]);
+          case LONG_STRING -> gen.writeString(Long.toString(value.primitives[dataIndex]));
+          case DOUBLE_STRING -> gen.writeString(Double.toString(Double.longBitsToDouble(value.primitives[dataIndex])));
+          case LONG -> gen.writeNumber(value.primitives[dataIndex]);
+          case DOUBLE -> gen.writeNumber(Double.longBitsToDouble(value.primitives[dataIndex]));
+          case OTHER -> provider.defaultSerializeValue(value.references[dataIndex], gen);
+          default -> gen.writeNull();
+        }
+      }
+      gen.writeEndObject();
+    }
+  }
+}
@@ -13,31 +13,31 @@
  */
 package com.redhat.examples;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Map;
 import java.util.SortedMap;
-import java.util.TreeMap;
-import org.apache.camel.AggregationStrategy;
-import org.apache.camel.Exchange;
+import java.util.concurrent.ConcurrentSkipListMap;
 import org.springframework.stereotype.Component;
 
+/*
+ * Collects the latest company overview for each symbol so the batch ingest file can be written back once the split
+ * that produced them has finished. Records are added concurrently by the parallel split.
+*/
 @Component
-public class CompanyOverviewAggregationStrategy implements AggregationStrategy {
+public class CompanyOverviewAggregationStrategy {
 
-  private final SortedMap<String, Object> companyOverviewMap = new TreeMap<>();
+  private final SortedMap<String, CompactCompanyOverview> companyOverviewMap = new ConcurrentSkipListMap<>();
 
-  public SortedMap<String, Object> getCompanyOverviewMap() {
+  public SortedMap<String, CompactCompanyOverview> getCompanyOverviewMap() {
     return companyOverviewMap;
   }
 
-  @Override
-  public Exchange aggregate(Exchange oldExchange, Exchange newExchange) {
-    String symbol = newExchange.getIn().getHeader(ApplicationHeaders.STOCK_SYMBOL, String.class);
-    Map json = newExchange.getIn().getBody(Map.class);
-    companyOverviewMap.put(symbol, json);
-    if (oldExchange == null) {
-      newExchange.getIn().setBody(companyOverviewMap);
-      return newExchange;
-    }
-    return oldExchange;
+  public void put(String symbol, Map<String, Object> json) {
+    companyOverviewMap.put(symbol, CompactCompanyOverview.of(json));
+  }
+
+  public Collection<CompactCompanyOverview> getCompanyOverviews() {
+    return new ArrayList<>(companyOverviewMap.values());
   }
 }
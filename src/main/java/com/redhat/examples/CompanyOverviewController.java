@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.redhat.examples;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/*
+ * Serves company overviews from the in-memory snapshot so that by-symbol lookups don't have to go to Weaviate. A symbol
+ * in the current symbol set but missing from the snapshot is looked up in Weaviate, so a 404 means the symbol isn't in
+ * the symbol set or isn't in Weaviate either.
+*/
+@RestController
+@RequestMapping("/overview")
+public class CompanyOverviewController {
+
+  @Autowired
+  ApplicationConfiguration config;
+
+  @Autowired
+  CompanyOverviewSnapshot companyOverviewSnapshot;
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  @GetMapping(path = "/{symbol}", produces = MediaType.APPLICATION_JSON_VALUE)
+  ResponseEntity<byte[]> getCompanyOverview(
+    @PathVariable String symbol,
+    @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
+    CompanyOverviewSnapshot.Entry entry = companyOverviewSnapshot.getOrLoad(symbol);
+    if (entry == null) {
+      return ResponseEntity.notFound().build();
+    }
+    return toResponse(entry.json(), entry.etag(), ifNoneMatch);
+  }
+
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  ResponseEntity<byte[]> getCompanyOverviews(
+    @RequestParam List<String> symbols,
+    @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
+    Set<String> distinctSymbols = new LinkedHashSet<>();
+    symbols.forEach((t) -> distinctSymbols.add(t.toUpperCase()));
+    if (distinctSymbols.size() > config.snapshot().maxBulkSymbols()) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    StringBuilder etags = new StringBuilder();
+    json.write('{');
+    for (String symbol : distinctSymbols) {
+      CompanyOverviewSnapshot.Entry entry = companyOverviewSnapshot.getOrLoad(symbol);
+      if (entry == null) {
+        continue;
+      }
+      if (etags.length() > 0) {
+        json.write(',');
+      }
+      json.write(objectMapper.writeValueAsBytes(symbol));
+      json.write(':');
+      json.write(entry.json());
+      etags.append(symbol).append(entry.etag());
+    }
+    json.write('}');
+    return toResponse(json.toByteArray(), String.format("\"%s\"", DigestUtils.md5Hex(etags.toString())), ifNoneMatch);
+  }
+
+  private ResponseEntity<byte[]> toResponse(byte[] json, String etag, String ifNoneMatch) {
+    if (ifNoneMatch != null && Arrays.stream(ifNoneMatch.split(",")).map(String::trim).anyMatch((t) -> t.equals("*") || t.equals(etag) || t.equals("W/" + etag))) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+    return ResponseEntity.ok().eTag(etag).body(json);
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.redhat.examples;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.weaviate.client.WeaviateClient;
+import io.weaviate.client.base.Result;
+import io.weaviate.client.v1.data.model.WeaviateObject;
+import jakarta.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/*
+ * The latest company overview upserted to Weaviate for each symbol, kept as pre-serialized JSON so that reads are a
+ * single lock-free map lookup. Symbols that this replica doesn't own (e.g. another member's shard) are loaded from
+ * Weaviate on read and revalidated after load-ttl (an upsert by this member while loading wins). Symbols outside the current symbol set are never looked up, and
+ * symbols missing from Weaviate are remembered in a bounded negative cache for load-ttl. Lookups go to the Weaviate
+ * client directly so that reads don't take slots from the ingest limiter.
+*/
+@Component
+public class CompanyOverviewSnapshot {
+
+  private static final Logger log = LoggerFactory.getLogger(CompanyOverviewSnapshot.class);
+
+  @Autowired
+  ApplicationConfiguration config;
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  @Autowired
+  WeaviateClient weaviateClient;
+
+  @Autowired
+  WeaviateHelper weaviateHelper;
+
+  @Autowired
+  CompanySymbols companySymbols;
+
+  @Autowired
+  SymbolShardManager symbolShardManager;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private Map<String, Long> misses;
+
+  public record Entry(
+    byte[] json,
+    String etag,
+    boolean loaded,
+    long updatedMillis) {
+
+  }
+
+  @PostConstruct
+  void init() {
+    misses = Collections.synchronizedMap(new LinkedHashMap<String, Long>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+        return size() > config.snapshot().negativeCacheSize();
+      }
+    });
+  }
+
+  public Entry getOrLoad(String symbol) throws JsonProcessingException {
+    String key = symbol.toUpperCase();
+    if (!companySymbols.isKnown(key)) {
+      return null;
+    }
+    long now = System.currentTimeMillis();
+    Entry entry = entries.get(key);
+    if (entry != null && ((!entry.loaded() && symbolShardManager.ownsSymbol(key)) || now - entry.updatedMillis() < config.snapshot().loadTtl())) {
+      return entry;
+    }
+    Long missMillis = misses.get(key);
+    if (missMillis != null && now - missMillis < config.snapshot().loadTtl()) {
+      return null;
+    }
+
+    String id = weaviateHelper.calculateDeterministicUUID(key);
+    log.debug("Loading snapshot from weaviate: symbol='{}', id='{}'", key, id);
+    Result<List<WeaviateObject>> getObjectResult = weaviateClient.data().objectsGetter().withClassName(config.weaviate().schema().name()).withID(id).run();
+    if (getObjectResult.hasErrors() && getObjectResult.getError().getStatusCode() != 404) {
+      throw new RuntimeException(getObjectResult.getError().toString());
+    }
+    if (getObjectResult.hasErrors() || getObjectResult.getResult() == null || getObjectResult.getResult().isEmpty()) {
+      misses.put(key, now);
+      if (entry != null) {
+        entries.remove(key, entry);
+      }
+      return null;
+    }
+    Entry loadedEntry = toEntry(getObjectResult.getResult().get(0).getProperties(), true, now);
+    misses.remove(key);
+    if (!config.snapshot().enabled()) {
+      return loadedEntry;
+    }
+    return entries.merge(key, loadedEntry, (t, u) -> (t != entry && !t.loaded()) ? t : u);
+  }
+
+  public Set<String> getSymbols() {
+    return Set.copyOf(entries.keySet());
+  }
+
+  public void update(String symbol, Map<String, Object> properties) throws JsonProcessingException {
+    if (!config.snapshot().enabled()) {
+      return;
+    }
+    Entry entry = toEntry(properties, false, System.currentTimeMillis());
+    entries.put(symbol.toUpperCase(), entry);
+    misses.remove(symbol.toUpperCase());
+    log.debug("Updated snapshot: symbol='{}', etag='{}'", symbol, entry.etag());
+  }
+
+  public void remove(String symbol) {
+    if (entries.remove(symbol.toUpperCase()) != null) {
+      log.debug("Removed from snapshot: symbol='{}'", symbol);
+    }
+  }
+
+  private Entry toEntry(Map<String, Object> properties, boolean loaded, long updatedMillis) throws JsonProcessingException {
+    byte[] json = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS).writeValueAsBytes(properties);
+    return new Entry(json, String.format("\"%s\"", DigestUtils.md5Hex(json)), loaded, updatedMillis);
+  }
+}
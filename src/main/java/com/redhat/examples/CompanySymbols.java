@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License", List.of("text"));
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.redhat.examples;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/*
+ * The current symbol set: the symbols of the last batch ingest plus the poller symbols. The set is unknown until the
+ * batch ingest has run on this member (followers in clustered mode never run it).
+*/
+@Component
+public class CompanySymbols {
+
+  private static final Logger log = LoggerFactory.getLogger(CompanySymbols.class);
+
+  @Autowired
+  ApplicationConfiguration config;
+
+  private volatile Set<String> batchSymbols;
+  private volatile Set<String> upperCaseSymbols;
+
+  @PostConstruct
+  void init() {
+    if (!config.batchIngest().enabled()) {
+      upperCaseSymbols = toUpperCase(getSymbols());
+    }
+  }
+
+  public void recordBatchSymbols(List<Map<String, Object>> companyOverviews) {
+    Set<String> symbols = new HashSet<>();
+    companyOverviews.forEach((t) -> {
+      if (t.get("Symbol") != null) {
+        symbols.add(t.get("Symbol").toString());
+      }
+    });
+    batchSymbols = symbols;
+    upperCaseSymbols = toUpperCase(getSymbols());
+    log.debug("Recorded batch symbols: symbolCount='{}'", symbols.size());
+  }
+
+  /*
+   * Returns null if the symbol set isn't known yet.
+  */
+  public Set<String> getSymbols() {
+    Set<String> currentBatchSymbols = batchSymbols;
+    if (config.batchIngest().enabled() && currentBatchSymbols == null) {
+      return null;
+    }
+    Set<String> symbols = new HashSet<>(config.poller().symbols());
+    if (currentBatchSymbols != null) {
+      symbols.addAll(currentBatchSymbols);
+    }
+    return Collections.unmodifiableSet(symbols);
+  }
+
+  /*
+   * True if the symbol is in the current symbol set (ignoring case), or the symbol set isn't known yet.
+  */
+  public boolean isKnown(String symbol) {
+    Set<String> currentUpperCaseSymbols = upperCaseSymbols;
+    return currentUpperCaseSymbols == null || currentUpperCaseSymbols.contains(symbol.toUpperCase());
+  }
+
+  private static Set<String> toUpperCase(Set<String> symbols) {
+    Set<String> to = new HashSet<>();
+    symbols.forEach((t) -> to.add(t.toUpperCase()));
+    return to;
+  }
+}
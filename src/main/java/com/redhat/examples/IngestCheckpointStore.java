@@ -0,0 +1,227 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.redhat.examples;
+
+import io.weaviate.client.WeaviateClient;
+import io.weaviate.client.base.Result;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/*
+ * Tracks the progress of the current batch ingest and periodically persists it to a local checkpoint file. The
+ * checkpoint holds the deterministic hash of the batch file and the offset below which every record has been upserted.
+ * Records are upserted in parallel, so the offset only advances over a contiguous run of committed records. On restart
+ * with the same batch file, the records below the offset are skipped. The checkpoint also holds a fingerprint of the
+ * Weaviate schema, and is ignored if the schema has changed, the class has been dropped/recreated, or the last
+ * checkpointed object is missing from Weaviate. A checkpoint that can't be read is ignored as well.
+*/
+@Component
+public class IngestCheckpointStore {
+
+  private static final Logger log = LoggerFactory.getLogger(IngestCheckpointStore.class);
+
+  private static final String CHECKPOINT_FILE_NAME = "ingest.checkpoint";
+  private static final String SOURCE_HASH = "sourceHash";
+  private static final String SCHEMA_HASH = "schemaHash";
+  private static final String OFFSET = "offset";
+  private static final String SYMBOL = "symbol";
+  private static final String COMPLETED = "completed";
+
+  @Autowired
+  ApplicationConfiguration config;
+
+  @Autowired
+  WeaviateClient weaviateClient;
+
+  @Autowired
+  WeaviateHelper weaviateHelper;
+
+  private String sourceHash;
+  private int size;
+  private int resumeOffset;
+  private int offset;
+  private String symbol;
+  private BitSet committed = new BitSet();
+  private Map<Integer, String> pendingSymbols = new HashMap<>();
+  private long lastWriteMillis;
+
+  public synchronized void begin(String sourceHash, int size) {
+    this.sourceHash = sourceHash;
+    this.size = size;
+    this.resumeOffset = 0;
+    this.offset = 0;
+    this.symbol = null;
+    this.committed = new BitSet(size);
+    this.pendingSymbols = new HashMap<>();
+    this.lastWriteMillis = System.currentTimeMillis();
+    if (!config.checkpoint().enabled() || !config.checkpoint().resume()) {
+      return;
+    }
+
+    Properties checkpoint = read();
+    if (checkpoint == null || !sourceHash.equals(checkpoint.getProperty(SOURCE_HASH))) {
+      log.debug("No checkpoint to resume from: sourceHash='{}'", sourceHash);
+      return;
+    }
+    if (!schemaHash().equals(checkpoint.getProperty(SCHEMA_HASH))) {
+      log.info("Ignoring checkpoint: sourceHash='{}', message='The Weaviate schema has changed since the checkpoint was saved.'", sourceHash);
+      return;
+    }
+    int checkpointOffset;
+    try {
+      checkpointOffset = Integer.parseInt(checkpoint.getProperty(OFFSET, "0"));
+    } catch (NumberFormatException e) {
+      log.warn("Ignoring checkpoint: sourceHash='{}', message='Invalid offset: {}'", sourceHash, e.getMessage());
+      return;
+    }
+    String checkpointSymbol = checkpoint.getProperty(SYMBOL);
+    if (checkpointOffset > 0 && checkpointSymbol != null && !existsInWeaviate(checkpointSymbol)) {
+      log.info("Ignoring checkpoint: sourceHash='{}', symbol='{}', message='The last checkpointed object is missing from Weaviate.'", sourceHash, checkpointSymbol);
+      return;
+    }
+    resumeOffset = Math.max(0, Math.min(size, checkpointOffset));
+    offset = resumeOffset;
+    symbol = checkpointSymbol;
+    log.info("Resuming ingest from checkpoint: sourceHash='{}', offset='{}', symbol='{}', recordCount='{}', completed='{}'", sourceHash, resumeOffset, symbol, size, checkpoint.getProperty(COMPLETED));
+  }
+
+  public synchronized boolean isCommitted(String sourceHash, int index) {
+    return config.checkpoint().enabled() && sourceHash != null && sourceHash.equals(this.sourceHash) && index < resumeOffset;
+  }
+
+  public synchronized void commit(String sourceHash, int index, String symbol) {
+    if (!config.checkpoint().enabled() || sourceHash == null || !sourceHash.equals(this.sourceHash)) {
+      return;
+    }
+    committed.set(index);
+    pendingSymbols.put(index, symbol);
+    while (committed.get(offset)) {
+      this.symbol = pendingSymbols.remove(offset);
+      ++offset;
+    }
+    if (System.currentTimeMillis() - lastWriteMillis >= config.checkpoint().period()) {
+      write(false);
+    }
+  }
+
+  public synchronized void complete(String sourceHash) {
+    if (!config.checkpoint().enabled() || sourceHash == null || !sourceHash.equals(this.sourceHash)) {
+      return;
+    }
+    offset = size;
+    write(true);
+    log.info("Finished ingest checkpoint: sourceHash='{}', recordCount='{}', skippedCount='{}'", sourceHash, size, resumeOffset);
+  }
+
+  /*
+   * Called when the Weaviate class is dropped or created, since none of the checkpointed records exist anymore.
+  */
+  public synchronized void invalidate() {
+    resumeOffset = 0;
+    try {
+      if (Files.deleteIfExists(checkpointFile())) {
+        log.info("Invalidated ingest checkpoint: name='{}'", config.weaviate().schema().name());
+      }
+    } catch (IOException e) {
+      log.warn("Unable to invalidate ingest checkpoint: file='{}', message='{}'", checkpointFile(), e.getMessage());
+    }
+  }
+
+  private boolean existsInWeaviate(String symbol) {
+    Result<Boolean> objectExistsResult = weaviateClient.data().checker().withClassName(config.weaviate().schema().name()).withID(weaviateHelper.calculateDeterministicUUID(symbol)).run();
+    if (objectExistsResult.hasErrors()) {
+      log.warn("Unable to check checkpointed object: symbol='{}', message='{}'", symbol, objectExistsResult.getError());
+      return false;
+    }
+    return Boolean.TRUE.equals(objectExistsResult.getResult());
+  }
+
+  /*
+   * Only the parts of the schema that affect the stored objects, so toggling flags like reconcile doesn't discard the
+   * checkpoint.
+  */
+  private String schemaHash() {
+    ApplicationConfiguration.Weaviate.Schema schema = config.weaviate().schema();
+    return DigestUtils.md5Hex(String.join("|",
+      String.valueOf(schema.name()),
+      String.valueOf(schema.properties()),
+      String.valueOf(schema.vectorizerModule()),
+      String.valueOf(schema.vectorizerModuleConfig()),
+      String.valueOf(schema.generativeModule()),
+      String.valueOf(schema.generativeModuleConfig())
+    ));
+  }
+
+  private Path checkpointFile() {
+    return Paths.get(config.checkpoint().directory(), CHECKPOINT_FILE_NAME);
+  }
+
+  private Properties read() {
+    Path file = checkpointFile();
+    if (!Files.exists(file)) {
+      return null;
+    }
+    Properties checkpoint = new Properties();
+    try (Reader reader = Files.newBufferedReader(file)) {
+      checkpoint.load(reader);
+    } catch (IOException | IllegalArgumentException e) {
+      log.warn("Ignoring unreadable checkpoint: file='{}', message='{}'", file, e.getMessage());
+      return null;
+    }
+    return checkpoint;
+  }
+
+  /*
+   * Best-effort: a failed write only loses progress, so it's logged and the ingest continues.
+  */
+  private void write(boolean completed) {
+    Properties checkpoint = new Properties();
+    checkpoint.setProperty(SOURCE_HASH, sourceHash);
+    checkpoint.setProperty(SCHEMA_HASH, schemaHash());
+    checkpoint.setProperty(OFFSET, Integer.toString(offset));
+    if (symbol != null) {
+      checkpoint.setProperty(SYMBOL, symbol);
+    }
+    checkpoint.setProperty(COMPLETED, Boolean.toString(completed));
+
+    Path file = checkpointFile();
+    lastWriteMillis = System.currentTimeMillis();
+    try {
+      Files.createDirectories(file.getParent());
+      Path tempFile = file.resolveSibling(CHECKPOINT_FILE_NAME + ".tmp");
+      try (Writer writer = Files.newBufferedWriter(tempFile)) {
+        checkpoint.store(writer, null);
+      }
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("Unable to write ingest checkpoint: file='{}', message='{}'", file, e.getMessage());
+      return;
+    }
+    log.debug("Wrote ingest checkpoint: sourceHash='{}', offset='{}', symbol='{}', completed='{}'", sourceHash, offset, symbol, completed);
+  }
+}
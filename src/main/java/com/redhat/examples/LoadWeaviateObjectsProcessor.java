@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.redhat.examples;
+
+import io.weaviate.client.WeaviateClient;
+import io.weaviate.client.base.Result;
+import io.weaviate.client.v1.data.api.ObjectsGetter;
+import io.weaviate.client.v1.data.model.WeaviateObject;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/*
+ * Sets the body to every company overview stored in Weaviate, converted back to the batch file format and sorted by
+ * symbol. In clustered mode each member only upserts its own shard, so the leader rebuilds the batch file from Weaviate
+ * instead of from the overviews it collected itself.
+*/
+@Component
+public class LoadWeaviateObjectsProcessor implements Processor {
+
+  private static final Logger log = LoggerFactory.getLogger(LoadWeaviateObjectsProcessor.class);
+
+  private static final int PAGE_SIZE = 1000;
+
+  @Autowired
+  ApplicationConfiguration config;
+
+  @Autowired
+  WeaviateClient weaviateClient;
+
+  @Autowired
+  WeaviateHelper weaviateHelper;
+
+  @Override
+  public void process(Exchange exchange) throws Exception {
+    log.debug("Loading objects: name='{}'", config.weaviate().schema().name());
+    SortedMap<String, Map<String, Object>> companyOverviews = new TreeMap<>();
+    String after = null;
+    while (true) {
+      ObjectsGetter objectsGetter = weaviateClient.data().objectsGetter().withClassName(config.weaviate().schema().name()).withLimit(PAGE_SIZE);
+      if (after != null) {
+        objectsGetter = objectsGetter.withAfter(after);
+      }
+      Result<List<WeaviateObject>> getObjectsResult = objectsGetter.run();
+      if (getObjectsResult.hasErrors()) {
+        throw new RuntimeException(getObjectsResult.getError().toString());
+      }
+      List<WeaviateObject> objects = getObjectsResult.getResult();
+      if (objects == null || objects.isEmpty()) {
+        break;
+      }
+      for (WeaviateObject object : objects) {
+        Map<String, Object> companyOverview = weaviateHelper.convertFromWeaviateProperties(object.getProperties());
+        companyOverviews.put(String.valueOf(companyOverview.get("Symbol")), companyOverview);
+      }
+      after = objects.get(objects.size() - 1).getId();
+    }
+    log.debug("Finished loading objects: name='{}', objectCount='{}'", config.weaviate().schema().name(), companyOverviews.size());
+    exchange.getIn().setBody(List.copyOf(companyOverviews.values()));
+  }
+}
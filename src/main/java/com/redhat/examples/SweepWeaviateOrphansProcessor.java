@@ -0,0 +1,205 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.redhat.examples;
+
+import io.weaviate.client.WeaviateClient;
+import io.weaviate.client.base.Result;
+import io.weaviate.client.v1.batch.model.BatchDeleteResponse;
+import io.weaviate.client.v1.filters.Operator;
+import io.weaviate.client.v1.filters.WhereFilter;
+import io.weaviate.client.v1.graphql.model.GraphQLResponse;
+import io.weaviate.client.v1.graphql.query.Get;
+import io.weaviate.client.v1.graphql.query.fields.Field;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/*
+ * Removes objects from Weaviate whose id doesn't match the deterministic UUID of any symbol in the current dataset
+ * (the last batch ingest plus the poller symbols). Objects are paged with a GraphQL Get cursor that only selects
+ * _additional { id }, so the properties and vectors aren't transferred.
+*/
+@Component
+public class SweepWeaviateOrphansProcessor implements Processor {
+
+  private static final Logger log = LoggerFactory.getLogger(SweepWeaviateOrphansProcessor.class);
+
+  @Autowired
+  ApplicationConfiguration config;
+
+  @Autowired
+  WeaviateClient weaviateClient;
+
+  @Autowired
+  WeaviateHelper weaviateHelper;
+
+  @Autowired
+  CompanySymbols companySymbols;
+
+  @Autowired
+  CompanyOverviewSnapshot companyOverviewSnapshot;
+
+  @Override
+  public void process(Exchange exchange) throws Exception {
+    Set<String> symbols = companySymbols.getSymbols();
+    if (symbols == null) {
+      log.info("Skipping orphan sweep: name='{}', message='Batch ingest has not completed yet.'", config.weaviate().schema().name());
+      return;
+    }
+    if (symbols.isEmpty()) {
+      log.warn("Skipping orphan sweep: name='{}', message='The current symbol set is empty.'", config.weaviate().schema().name());
+      return;
+    }
+    CompactUUIDSet knownIds = new CompactUUIDSet(symbols.stream().map((t) -> UUID.fromString(weaviateHelper.calculateDeterministicUUID(t))).toList());
+
+    log.info("Sweeping orphans: name='{}', knownCount='{}', dryRun='{}'", config.weaviate().schema().name(), knownIds.size(), config.orphanSweep().dryRun());
+    long scannedCount = 0;
+    long orphanCount = 0;
+    long deletedCount = 0;
+    List<String> orphanIds = new ArrayList<>(config.orphanSweep().deleteBatchSize());
+    String after = null;
+    while (true) {
+      log.debug("Querying object ids: after='{}', limit='{}'", after, config.orphanSweep().pageSize());
+      List<String> ids = getObjectIds(after);
+      if (ids.isEmpty()) {
+        break;
+      }
+      for (String id : ids) {
+        ++scannedCount;
+        if (!knownIds.contains(UUID.fromString(id))) {
+          ++orphanCount;
+          orphanIds.add(id);
+          if (orphanIds.size() == config.orphanSweep().deleteBatchSize()) {
+            deletedCount += deleteOrphans(orphanIds);
+            orphanIds.clear();
+          }
+        }
+      }
+      after = ids.get(ids.size() - 1);
+    }
+    if (!orphanIds.isEmpty()) {
+      deletedCount += deleteOrphans(orphanIds);
+    }
+    if (!config.orphanSweep().dryRun()) {
+      companyOverviewSnapshot.getSymbols().stream().filter((t) -> !companySymbols.isKnown(t)).forEach(companyOverviewSnapshot::remove);
+    }
+    log.info("Finished sweeping orphans: name='{}', scannedCount='{}', orphanCount='{}', deletedCount='{}', dryRun='{}'", config.weaviate().schema().name(), scannedCount, orphanCount, deletedCount, config.orphanSweep().dryRun());
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<String> getObjectIds(String after) {
+    Get getter = weaviateClient.graphQL().get()
+      .withClassName(config.weaviate().schema().name())
+      .withFields(Field.builder().name("_additional").fields(Field.builder().name("id").build()).build())
+      .withLimit(config.orphanSweep().pageSize());
+    if (after != null) {
+      getter = getter.withAfter(after);
+    }
+    Result<GraphQLResponse> getResult = getter.run();
+    if (getResult.hasErrors()) {
+      throw new RuntimeException(getResult.getError().toString());
+    }
+    if (getResult.getResult().getErrors() != null && getResult.getResult().getErrors().length > 0) {
+      throw new RuntimeException(Arrays.toString(getResult.getResult().getErrors()));
+    }
+    Map<String, Object> data = (Map<String, Object>) getResult.getResult().getData();
+    Map<String, Object> get = (data != null) ? (Map<String, Object>) data.get("Get") : null;
+    List<Map<String, Object>> objects = (get != null) ? (List<Map<String, Object>>) get.get(config.weaviate().schema().name()) : null;
+    if (objects == null) {
+      return List.of();
+    }
+    return objects.stream().map((t) -> ((Map<String, Object>) t.get("_additional")).get("id").toString()).toList();
+  }
+
+  private long deleteOrphans(List<String> ids) {
+    if (config.orphanSweep().dryRun()) {
+      log.info("Skipping delete orphans (dry run): name='{}', orphanCount='{}'", config.weaviate().schema().name(), ids.size());
+      log.debug("Skipping delete orphans (dry run): name='{}', ids='{}'", config.weaviate().schema().name(), ids);
+      return 0;
+    }
+    log.debug("Deleting orphans: name='{}', ids='{}'", config.weaviate().schema().name(), ids);
+    Result<BatchDeleteResponse> batchDeleteResult = weaviateClient.batch().objectsBatchDeleter()
+      .withClassName(config.weaviate().schema().name())
+      .withWhere(
+        WhereFilter.builder()
+          .path("id")
+          .operator(Operator.ContainsAny)
+          .valueText(ids.toArray(String[]::new))
+          .build()
+      )
+      .run();
+    if (batchDeleteResult.hasErrors()) {
+      throw new RuntimeException(batchDeleteResult.getError().toString());
+    }
+    long successful = batchDeleteResult.getResult().getResults().getSuccessful();
+    log.debug("Finished deleting orphans: name='{}', deletedCount='{}', failedCount='{}'", config.weaviate().schema().name(), successful, batchDeleteResult.getResult().getResults().getFailed());
+    return successful;
+  }
+
+  /*
+   * Sorted array of the UUID bits. Uses 16 bytes per id, compared to roughly 100 bytes per entry for a HashSet of
+   * String ids.
+  */
+  static final class CompactUUIDSet {
+
+    private final long[] mostSignificantBits;
+    private final long[] leastSignificantBits;
+
+    CompactUUIDSet(Collection<UUID> uuids) {
+      UUID[] sorted = uuids.stream().distinct().sorted().toArray(UUID[]::new);
+      mostSignificantBits = new long[sorted.length];
+      leastSignificantBits = new long[sorted.length];
+      for (int i = 0; i < sorted.length; ++i) {
+        mostSignificantBits[i] = sorted[i].getMostSignificantBits();
+        leastSignificantBits[i] = sorted[i].getLeastSignificantBits();
+      }
+    }
+
+    int size() {
+      return mostSignificantBits.length;
+    }
+
+    boolean contains(UUID uuid) {
+      int low = 0;
+      int high = mostSignificantBits.length - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int cmp = compare(mid, uuid);
+        if (cmp < 0) {
+          low = mid + 1;
+        } else if (cmp > 0) {
+          high = mid - 1;
+        } else {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private int compare(int index, UUID uuid) {
+      int cmp = Long.compare(mostSignificantBits[index], uuid.getMostSignificantBits());
+      return (cmp != 0) ? cmp : Long.compare(leastSignificantBits[index], uuid.getLeastSignificantBits());
+    }
+  }
+}
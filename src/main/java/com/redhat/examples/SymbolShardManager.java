@@ -0,0 +1,212 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.redhat.examples;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.cluster.CamelClusterEventListener;
+import org.apache.camel.cluster.CamelClusterMember;
+import org.apache.camel.cluster.CamelClusterService;
+import org.apache.camel.cluster.CamelClusterView;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/*
+ * Splits the poller symbols across the cluster members using consistent hashing and tracks whether this member is the
+ * leader. The file lock cluster service doesn't report other members (or a remote leader), so for the FILE type
+ * membership is tracked with heartbeat files in the cluster root directory instead, and this member is a follower until
+ * it acquires the lock.
+*/
+@Component
+public class SymbolShardManager implements CamelClusterEventListener.Leadership, CamelClusterEventListener.Membership {
+
+  private static final Logger log = LoggerFactory.getLogger(SymbolShardManager.class);
+
+  @Autowired
+  ApplicationConfiguration config;
+
+  @Autowired(required = false)
+  CamelClusterService clusterService;
+
+  @Autowired
+  ProducerTemplate producerTemplate;
+
+  private volatile CamelClusterView clusterView;
+  private volatile boolean leader;
+  private volatile SortedSet<String> members = new TreeSet<>();
+  private volatile NavigableMap<Long, String> ring = new TreeMap<>();
+
+  public boolean isClustered() {
+    return config.cluster() != null && config.cluster().enabled();
+  }
+
+  public boolean isLeader() {
+    return !isClustered() || leader;
+  }
+
+  public SortedSet<String> getMembers() {
+    return members;
+  }
+
+  public void join() throws Exception {
+    if (!isClustered()) {
+      return;
+    }
+    log.info("Joining cluster: namespace='{}', memberId='{}'", config.cluster().namespace(), config.cluster().memberId());
+    clusterView = clusterService.getView(config.cluster().namespace());
+    clusterView.addEventListener(this);
+    refreshMembers();
+  }
+
+  @PreDestroy
+  public void leave() {
+    if (!isClustered() || clusterView == null) {
+      return;
+    }
+    log.info("Leaving cluster: namespace='{}', memberId='{}'", config.cluster().namespace(), config.cluster().memberId());
+    clusterView.removeEventListener(this);
+    if (config.cluster().type() == ApplicationConfiguration.Cluster.ClusterType.FILE) {
+      try {
+        Files.deleteIfExists(heartbeatDirectory().resolve(config.cluster().memberId()));
+      } catch (IOException e) {
+        log.warn("Unable to remove heartbeat: memberId='{}', message='{}'", config.cluster().memberId(), e.getMessage());
+      }
+    }
+  }
+
+  public void refreshMembers() throws IOException {
+    if (clusterView == null) {
+      return;
+    }
+    SortedSet<String> currentMembers = new TreeSet<>();
+    currentMembers.add(config.cluster().memberId());
+    switch (config.cluster().type()) {
+      case FILE -> currentMembers.addAll(heartbeat());
+      case KUBERNETES -> clusterView.getMembers().forEach((t) -> currentMembers.add(t.getId()));
+    }
+    if (!currentMembers.equals(members)) {
+      NavigableMap<Long, String> currentRing = new TreeMap<>();
+      currentMembers.forEach((member) -> {
+        for (int i = 0; i < config.cluster().virtualNodes(); ++i) {
+          currentRing.put(hash(member + "#" + i), member);
+        }
+      });
+      ring = currentRing;
+      members = currentMembers;
+      log.info("Rebalancing symbols: members='{}', assignedSymbolCount='{}'", currentMembers, getAssignedSymbols().size());
+    }
+  }
+
+  public Collection<String> getAssignedSymbols() {
+    if (!isClustered()) {
+      return config.poller().symbols();
+    }
+    return config.poller().symbols().stream().filter(this::ownsSymbol).toList();
+  }
+
+  public boolean ownsSymbol(String symbol) {
+    if (!isClustered()) {
+      return true;
+    }
+    NavigableMap<Long, String> currentRing = ring;
+    if (currentRing.isEmpty()) {
+      return true;
+    }
+    Map.Entry<Long, String> owner = currentRing.ceilingEntry(hash(symbol));
+    if (owner == null) {
+      owner = currentRing.firstEntry();
+    }
+    return config.cluster().memberId().equals(owner.getValue());
+  }
+
+  @Override
+  public void leadershipChanged(CamelClusterView view, Optional<CamelClusterMember> leaderMember) {
+    boolean isLocalLeader = leaderMember.map(CamelClusterMember::isLocal).orElse(false);
+    boolean wasLocalLeader = leader;
+    leader = isLocalLeader;
+    log.info("Cluster leadership changed: namespace='{}', leaderId='{}', isLeader='{}'", view.getNamespace(), leaderMember.map(CamelClusterMember::getId).orElse(null), isLocalLeader);
+    if (isLocalLeader && !wasLocalLeader) {
+      producerTemplate.asyncSendBody("direct:kickstartmyleader", null);
+    } else if (!isLocalLeader && wasLocalLeader) {
+      producerTemplate.asyncSendBody("direct:kickstartmyfollower", null);
+    }
+  }
+
+  @Override
+  public void memberAdded(CamelClusterView view, CamelClusterMember member) {
+    log.debug("Cluster member added: namespace='{}', memberId='{}'", view.getNamespace(), member.getId());
+    refreshMembersQuietly();
+  }
+
+  @Override
+  public void memberRemoved(CamelClusterView view, CamelClusterMember member) {
+    log.debug("Cluster member removed: namespace='{}', memberId='{}'", view.getNamespace(), member.getId());
+    refreshMembersQuietly();
+  }
+
+  private void refreshMembersQuietly() {
+    try {
+      refreshMembers();
+    } catch (IOException e) {
+      log.warn("Unable to refresh cluster members: message='{}'", e.getMessage());
+    }
+  }
+
+  private Path heartbeatDirectory() {
+    return Paths.get(config.cluster().root(), config.cluster().namespace() + ".members");
+  }
+
+  private Set<String> heartbeat() throws IOException {
+    Path directory = heartbeatDirectory();
+    Files.createDirectories(directory);
+    Files.writeString(directory.resolve(config.cluster().memberId()), Long.toString(System.currentTimeMillis()));
+
+    long cutoff = System.currentTimeMillis() - config.cluster().memberTimeout();
+    Set<String> aliveMembers = new TreeSet<>();
+    try (Stream<Path> heartbeats = Files.list(directory)) {
+      heartbeats.forEach((t) -> {
+        try {
+          if (Files.getLastModifiedTime(t).toMillis() >= cutoff) {
+            aliveMembers.add(t.getFileName().toString());
+          }
+        } catch (IOException e) {
+          log.debug("Unable to read heartbeat: file='{}', message='{}'", t, e.getMessage());
+        }
+      });
+    }
+    return aliveMembers;
+  }
+
+  private static long hash(String key) {
+    return ByteBuffer.wrap(DigestUtils.md5(key.getBytes(StandardCharsets.UTF_8))).getLong();
+  }
+}
@@ -16,8 +16,10 @@ package com.redhat.examples;
 import io.weaviate.client.WeaviateClient;
 import io.weaviate.client.base.Result;
 import io.weaviate.client.v1.data.model.WeaviateObject;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.slf4j.Logger;
@@ -25,6 +27,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+/*
+ * Creates the object, or merges the properties into the existing object. Batch records only carry the OVERVIEW fields,
+ * so merging keeps the fields of the other Alpha Vantage functions written by the poller. The body is set to the
+ * resulting properties of the object.
+*/
 @Component
 public class UpsertWeaviateObjectProcessor implements Processor {
 
@@ -35,6 +42,9 @@ public class UpsertWeaviateObjectProcessor implements Processor {
   
   @Autowired
   WeaviateClient weaviateClient;
+  
+  @Autowired
+  AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
 
   @Override
   public void process(Exchange exchange) throws Exception {
@@ -42,7 +52,7 @@ public class UpsertWeaviateObjectProcessor implements Processor {
     Map<String, Object> properties = exchange.getIn().getBody(Map.class);
 
     log.debug("Querying objects: id='{}'", id);
-    Result<List<WeaviateObject>> getObjectResult = weaviateClient.data().objectsGetter().withClassName(config.weaviate().schema().name()).withID(id).run();
+    Result<List<WeaviateObject>> getObjectResult = adaptiveConcurrencyLimiter.run(() -> weaviateClient.data().objectsGetter().withClassName(config.weaviate().schema().name()).withID(id).run());
     if (getObjectResult.hasErrors()) {
       throw new RuntimeException(getObjectResult.getError().toString());
     }
@@ -50,15 +60,16 @@ public class UpsertWeaviateObjectProcessor implements Processor {
 
     if (getObjectResult.getResult() == null || getObjectResult.getResult().size() == 0) {
       log.debug("Creating object: id='{}', properties='{}'", id, properties);
-      Result<WeaviateObject> insertObjectResult = weaviateClient.data().creator().withClassName(config.weaviate().schema().name()).withID(id).withProperties(properties).run();
+      Result<WeaviateObject> insertObjectResult = adaptiveConcurrencyLimiter.run(() -> weaviateClient.data().creator().withClassName(config.weaviate().schema().name()).withID(id).withProperties(properties).run());
       if (insertObjectResult.hasErrors()) {
         throw new RuntimeException(insertObjectResult.getError().toString());
       }
       log.debug("Finished creating object: id='{}'", id);
     } else if (getObjectResult.getResult().size() == 1) {
-      if (!properties.equals(getObjectResult.getResult().get(0).getProperties())) {
+      Map<String, Object> existingProperties = (getObjectResult.getResult().get(0).getProperties() != null) ? getObjectResult.getResult().get(0).getProperties() : Map.of();
+      if (!properties.entrySet().stream().allMatch((t) -> Objects.equals(t.getValue(), existingProperties.get(t.getKey())))) {
         log.debug("Updating object: id='{}', properties='{}'", id, properties);
-        Result<Boolean> updateObjectResult = weaviateClient.data().updater().withClassName(config.weaviate().schema().name()).withID(id).withProperties(properties).run();
+        Result<Boolean> updateObjectResult = adaptiveConcurrencyLimiter.run(() -> weaviateClient.data().updater().withClassName(config.weaviate().schema().name()).withID(id).withProperties(properties).withMerge().run());
         if (updateObjectResult.hasErrors()) {
           throw new RuntimeException(updateObjectResult.getError().toString());
         }
@@ -66,6 +77,9 @@ public class UpsertWeaviateObjectProcessor implements Processor {
       } else {
         log.debug("Skipping update object: id='{}'", id);
       }
+      Map<String, Object> mergedProperties = new HashMap<>(existingProperties);
+      mergedProperties.putAll(properties);
+      exchange.getIn().setBody(mergedProperties);
     } else {
       throw new RuntimeException(String.format("Multiple objects found: id='%s', objectCount='%d'", id, getObjectResult.getResult().size()));
     }
@@ -13,15 +13,25 @@
  */
 package com.redhat.examples;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.f4b6a3.uuid.UuidCreator;
 import com.github.f4b6a3.uuid.enums.UuidNamespace;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class WeaviateHelper {
 
+  private static final String OVERVIEW_FUNCTION = "OVERVIEW";
+
+  @Autowired
+  ObjectMapper objectMapper;
+
   public String calculateDeterministicUUID(String identifier) {
     return UuidCreator.getNameBasedSha1(UuidNamespace.NAMESPACE_DNS, identifier).toString();
   }
@@ -40,4 +50,73 @@ public class WeaviateHelper {
     });
     return to;
   }
+  
+  /*
+   * Reverses convertToWeaviateProperties. The Alpha Vantage keys all start with an upper case letter.
+  */
+  public Map<String, Object> convertFromWeaviateProperties(Map<String, Object> from) {
+    Map<String, Object> to = new LinkedHashMap<>();
+    from.forEach((k, v) -> {
+      String modifiedK = switch (k) {
+        case "fiftytwoWeekHigh" -> "52WeekHigh";
+        case "fiftytwoWeekLow" -> "52WeekLow";
+        case "fiftyDayMovingAverage" -> "50DayMovingAverage";
+        case "twohundredDayMovingAverage" -> "200DayMovingAverage";
+        default -> k.replaceFirst("^.", k.substring(0, 1).toUpperCase());
+      };
+      to.put(modifiedK, v);
+    });
+    return to;
+  }
+
+  /*
+   * Every function other than OVERVIEW echoes the symbol and may return fields that collide with the overview, so its
+   * fields are prefixed with the CamelCased function name (e.g. EARNINGS/annualEarnings -> EarningsAnnualEarnings) and
+   * its symbol is dropped. Nested arrays/objects are stored as JSON text, since the schema only has text properties.
+  */
+  public Map<String, Object> toFunctionProperties(String function, Map<String, Object> from) throws JsonProcessingException {
+    if (from == null || OVERVIEW_FUNCTION.equalsIgnoreCase(function)) {
+      return from;
+    }
+    StringBuilder prefix = new StringBuilder();
+    for (String word : function.toLowerCase().split("_")) {
+      if (!word.isEmpty()) {
+        prefix.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+      }
+    }
+    Map<String, Object> to = new LinkedHashMap<>();
+    for (Map.Entry<String, Object> entry : from.entrySet()) {
+      if (entry.getKey().equalsIgnoreCase("symbol")) {
+        continue;
+      }
+      Object value = entry.getValue();
+      if (value instanceof Map || value instanceof List) {
+        value = objectMapper.writeValueAsString(value);
+      }
+      to.put(prefix + entry.getKey().substring(0, 1).toUpperCase() + entry.getKey().substring(1), value);
+    }
+    return to;
+  }
+
+  /*
+   * Batch records are upserted in parallel, so two records for the same symbol could both try to create the object. Keeps
+   * the position of the first record and the values of the last, matching the result of upserting them in order.
+  */
+  public List<Map<String, Object>> distinctBySymbol(List<Map<String, Object>> from) {
+    Map<Object, Map<String, Object>> to = new LinkedHashMap<>();
+    for (int i = 0; i < from.size(); ++i) {
+      Object symbol = from.get(i).get("Symbol");
+      to.put((symbol != null) ? symbol : i, from.get(i));
+    }
+    return (to.size() == from.size()) ? from : List.copyOf(to.values());
+  }
+
+  public Map<String, Object> mergeProperties(List<Map<String, Object>> from) {
+    if (from == null || from.isEmpty() || from.contains(null)) {
+      return null;
+    }
+    Map<String, Object> to = new LinkedHashMap<>();
+    from.forEach((t) -> t.forEach(to::putIfAbsent));
+    return to;
+  }
 }
@@ -13,7 +13,10 @@
  */
 package com.redhat.examples;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import io.weaviate.client.WeaviateClient;
 import io.weaviate.client.base.Result;
 import io.weaviate.client.v1.schema.model.Property;
@@ -36,6 +39,9 @@ public class WeaviateSchemaCreator {
   @Autowired
   WeaviateClient weaviateClient;
 
+  @Autowired
+  IngestCheckpointStore ingestCheckpointStore;
+
   @EventListener(ApplicationReadyEvent.class)
   void initWeaviateSchema() {
     log.debug("Initializing schema: name='{}'", config.weaviate().schema().name());
@@ -66,12 +72,7 @@ public class WeaviateSchemaCreator {
           WeaviateClass.builder()
             .className(config.weaviate().schema().name())
             .properties(
-              config.weaviate().schema().properties().stream().map((t) -> {
-                return Property.builder()
-                  .name(t.name())
-                  .dataType(t.dataTypes())
-                  .build();
-              }).toList()
+              config.weaviate().schema().properties().stream().map(this::toProperty).toList()
             )
             .vectorizer(config.weaviate().schema().vectorizerModule())
             .moduleConfig(
@@ -86,6 +87,83 @@ public class WeaviateSchemaCreator {
       if (schemaCreateResult.hasErrors()) {
         throw new RuntimeException(schemaCreateResult.getError().toString());
       }
+      ingestCheckpointStore.invalidate();
+    } else if (config.weaviate().schema().reconcile()) {
+      reconcileWeaviateSchema();
+    }
+  }
+
+  /*
+   * Adds any missing properties to the existing class in place. Changes that Weaviate can't apply to an existing class
+   * (data types, vectorizer/generative modules and their configs) are only logged, since applying them requires dropping
+   * the class.
+  */
+  void reconcileWeaviateSchema() {
+    log.debug("Reconciling schema: name='{}'", config.weaviate().schema().name());
+    Result<WeaviateClass> classGetResult = weaviateClient.schema().classGetter().withClassName(config.weaviate().schema().name()).run();
+    if (classGetResult.hasErrors()) {
+      throw new RuntimeException(classGetResult.getError().toString());
+    }
+    WeaviateClass existingClass = classGetResult.getResult();
+    List<Property> existingProperties = (existingClass.getProperties() != null) ? existingClass.getProperties() : List.of();
+
+    int addedCount = 0;
+    int incompatibleCount = 0;
+    if (!Objects.equals(existingClass.getVectorizer(), config.weaviate().schema().vectorizerModule())) {
+      log.warn("Incompatible schema change: name='{}', existingVectorizer='{}', vectorizer='{}'", config.weaviate().schema().name(), existingClass.getVectorizer(), config.weaviate().schema().vectorizerModule());
+      ++incompatibleCount;
+    }
+    Map<?, ?> existingModuleConfig = (existingClass.getModuleConfig() instanceof Map<?, ?> m) ? m : Map.of();
+    incompatibleCount += reconcileModuleConfig(existingModuleConfig, config.weaviate().schema().vectorizerModule(), config.weaviate().schema().vectorizerModuleConfig());
+    incompatibleCount += reconcileModuleConfig(existingModuleConfig, config.weaviate().schema().generativeModule(), config.weaviate().schema().generativeModuleConfig());
+
+    for (ApplicationConfiguration.Weaviate.Schema.Property property : config.weaviate().schema().properties()) {
+      Optional<Property> existingProperty = existingProperties.stream().filter((t) -> t.getName().equalsIgnoreCase(property.name())).findFirst();
+      if (existingProperty.isEmpty()) {
+        log.debug("Adding schema property: name='{}', property='{}', dataTypes='{}'", config.weaviate().schema().name(), property.name(), property.dataTypes());
+        Result<Boolean> propertyCreateResult = weaviateClient.schema().propertyCreator().withClassName(config.weaviate().schema().name()).withProperty(toProperty(property)).run();
+        if (propertyCreateResult.hasErrors()) {
+          throw new RuntimeException(propertyCreateResult.getError().toString());
+        }
+        ++addedCount;
+      } else if (!Objects.equals(existingProperty.get().getDataType(), property.dataTypes())) {
+        log.warn("Incompatible schema change: name='{}', property='{}', existingDataTypes='{}', dataTypes='{}'", config.weaviate().schema().name(), property.name(), existingProperty.get().getDataType(), property.dataTypes());
+        ++incompatibleCount;
+      }
     }
+    existingProperties.stream()
+      .filter((t) -> config.weaviate().schema().properties().stream().noneMatch((p) -> p.name().equalsIgnoreCase(t.getName())))
+      .forEach((t) -> log.debug("Unmanaged schema property: name='{}', property='{}'", config.weaviate().schema().name(), t.getName()));
+
+    log.info("Finished reconciling schema: name='{}', addedProperties='{}', incompatibleProperties='{}'", config.weaviate().schema().name(), addedCount, incompatibleCount);
+  }
+
+  /*
+   * Only the configured keys are compared, since Weaviate fills in defaults for the rest of the module config.
+  */
+  private int reconcileModuleConfig(Map<?, ?> existingModuleConfig, String module, Map<String, Object> moduleConfig) {
+    if (module == null) {
+      return 0;
+    }
+    if (!(existingModuleConfig.get(module) instanceof Map<?, ?> existingConfig)) {
+      log.warn("Incompatible schema change: name='{}', module='{}', message='Module is not configured on the existing class.'", config.weaviate().schema().name(), module);
+      return 1;
+    }
+    int incompatibleCount = 0;
+    for (Map.Entry<String, Object> entry : ((moduleConfig != null) ? moduleConfig : Map.<String, Object>of()).entrySet()) {
+      Object existingValue = existingConfig.get(entry.getKey());
+      if (!String.valueOf(existingValue).equals(String.valueOf(entry.getValue()))) {
+        log.warn("Incompatible schema change: name='{}', module='{}', key='{}', existingValue='{}', value='{}'", config.weaviate().schema().name(), module, entry.getKey(), existingValue, entry.getValue());
+        ++incompatibleCount;
+      }
+    }
+    return incompatibleCount;
+  }
+
+  private Property toProperty(ApplicationConfiguration.Weaviate.Schema.Property property) {
+    return Property.builder()
+      .name(property.name())
+      .dataType(property.dataTypes())
+      .build();
   }
 }